@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# 使用模拟目录树运行插桩后的原生程序，生成 PGO 配置文件 default.iprof
+# 先执行: mvn clean package -Pnative,pgo-instrument
+# 再执行: scripts/pgo-train.sh && mvn clean package -Pnative,pgo
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+binary=target/SmartJavaCopier
+home=target/pgo-home
+
+if [ ! -x "$binary" ]; then
+    echo "[Error] $binary not found, build it with: mvn clean package -Pnative,pgo-instrument" >&2
+    exit 1
+fi
+
+scripts/synthetic-tree.sh "$home" 40 300
+
+# 程序每次提示都会重新读取标准输入，因此通过命名管道逐步输入
+fifo=$(mktemp -u)
+log=$(mktemp)
+mkfifo "$fifo"
+trap 'rm -f "$fifo" "$log"' EXIT
+
+"$binary" -Duser.home="$PWD/$home" < "$fifo" > "$log" 2>&1 &
+pid=$!
+exec 3> "$fifo"
+
+# 等待输出中出现指定文本；程序提前退出时报错
+wait_for() {
+    until grep -q "$1" "$log"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "[Error] $binary exited before printing \"$1\":" >&2
+            cat "$log" >&2
+            exit 1
+        fi
+        sleep 0.1
+    done
+}
+
+# 扫描完成后选择多模块项目，覆盖子模块后缀和配置文件重命名的路径；复制完成后按回车退出
+wait_for "Please enter the number"
+choice=$(sed -n 's/^ *\([0-9][0-9]*\)\. workspace\/multi-service$/\1/p' "$log")
+if [ -z "$choice" ]; then
+    echo "[Error] multi-service project not found in the project list" >&2
+    exit 1
+fi
+echo "$choice" >&3
+wait_for "Press Enter to exit"
+echo >&3
+exec 3>&-
+wait "$pid" || true
+
+if [ ! -f default.iprof ]; then
+    echo "[Error] default.iprof was not written, was the binary built with -Ppgo-instrument?" >&2
+    exit 1
+fi
+echo "Profile written to $PWD/default.iprof"
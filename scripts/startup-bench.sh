@@ -0,0 +1,74 @@
+#!/usr/bin/env bash
+# 比较 JVM、JVM + AppCDS 和原生程序的启动时间
+# 测量从启动到第一个输出字节、以及到显示项目选择菜单提示的时间（毫秒，取中位数）
+# 先执行: mvn clean package（可选: mvn package -Pnative 生成原生程序）
+# 用法: scripts/startup-bench.sh [运行次数]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+runs=${1:-10}
+jar=target/project-copier-1.0.0.jar
+native=target/SmartJavaCopier
+home=target/bench-home
+archive=target/app-cds.jsa
+main=com.example.copier.SmartJavaCopier
+
+if [ ! -f "$jar" ]; then
+    echo "[Error] $jar not found, build it with: mvn clean package" >&2
+    exit 1
+fi
+
+scripts/synthetic-tree.sh "$home" 20 50 > /dev/null
+home_property=-Duser.home="$PWD/$home"
+
+now() {
+    date +%s%N
+}
+
+# 输出两个数值: 第一个字节输出耗时 和 显示菜单提示耗时
+# 菜单提示没有换行符，因此按冒号分段读取，在读到提示时计时，而不是等进程退出
+# 标准输入为空，程序随后读取失败并退出，等待其退出后再开始下一次运行
+measure() {
+    local start first menu chunk pid
+    start=$(now)
+    exec 4< <("$@" < /dev/null 2> /dev/null)
+    pid=$!
+    IFS= read -r -n 1 -u 4 chunk || true
+    first=$(now)
+    while IFS= read -r -d ':' -u 4 chunk; do
+        case "$chunk" in
+            *"Please enter the number of the project you want to copy") break ;;
+        esac
+    done
+    menu=$(now)
+    exec 4<&-
+    wait "$pid" 2> /dev/null || true
+    echo "$(( (first - start) / 1000000 )) $(( (menu - start) / 1000000 ))"
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+bench() {
+    local name=$1 firsts="" menus="" result
+    shift
+    for _ in $(seq 1 "$runs"); do
+        result=$(measure "$@")
+        firsts+="${result% *}"$'\n'
+        menus+="${result#* }"$'\n'
+    done
+    printf "%-16s %18s %12s\n" "$name" "$(printf "%s" "$firsts" | median)" "$(printf "%s" "$menus" | median)"
+}
+
+# 训练运行生成 AppCDS 归档
+java -XX:ArchiveClassesAtExit="$archive" "$home_property" -cp "$jar" "$main" < /dev/null > /dev/null 2>&1 || true
+
+printf "%-16s %18s %12s\n" "Mode" "First output (ms)" "Menu (ms)"
+bench "JVM" java "$home_property" -cp "$jar" "$main"
+bench "JVM + AppCDS" java -XX:SharedArchiveFile="$archive" "$home_property" -cp "$jar" "$main"
+if [ -x "$native" ]; then
+    bench "Native" "$native" "$home_property"
+else
+    echo "[Info] $native not found, skipping native run (build with: mvn package -Pnative)"
+fi
@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# 生成一个模拟的用户主目录，用于基准测试和 PGO 训练
+# 用法: scripts/synthetic-tree.sh <目标目录> [项目数量] [每个包的文件数]
+set -euo pipefail
+
+root=${1:?usage: synthetic-tree.sh <dir> [projects] [files-per-package]}
+projects=${2:-20}
+files=${3:-200}
+
+rm -rf "$root"
+mkdir -p "$root/Documents"
+
+# 多模块 Maven 项目（PGO 训练时复制该项目），各模块中存在同名类和配置文件，会触发子模块后缀和冲突重命名
+multi="$root/workspace/multi-service"
+mkdir -p "$multi"
+cat > "$multi/pom.xml" <<POM
+<project><modules><module>service-a</module><module>service-b</module></modules></project>
+POM
+for module in service-a service-b; do
+    mkdir -p "$multi/$module/src/main/java/com/example/$module" "$multi/$module/src/main/resources"
+    echo "<project/>" > "$multi/$module/pom.xml"
+    echo "server.port=8080" > "$multi/$module/src/main/resources/application.properties"
+    for i in $(seq 1 "$files"); do
+        echo "class Service$i {}" > "$multi/$module/src/main/java/com/example/$module/Service$i.java"
+    done
+done
+
+# 其余为单模块项目，两个包中的类同名
+for p in $(seq 1 "$projects"); do
+    project="$root/workspace/group$((p % 4))/project$p"
+    for pkg in api impl; do
+        mkdir -p "$project/src/main/java/com/example/$pkg"
+        for i in $(seq 1 "$files"); do
+            echo "class Type$i {}" > "$project/src/main/java/com/example/$pkg/Type$i.java"
+        done
+    done
+    mkdir -p "$project/src/main/resources"
+    echo "<project/>" > "$project/pom.xml"
+    echo "<configuration/>" > "$project/src/main/resources/logback.xml"
+done
+
+# 扫描时应被跳过的目录
+mkdir -p "$root/node_modules/pkg/src" "$root/.cache/pkg" "$root/Downloads/archive"
+echo "class Ignored {}" > "$root/node_modules/pkg/src/Ignored.java"
+
+echo "Synthetic tree created in $root"
@@ -0,0 +1,52 @@
+package com.example.copier;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Settings of the copier that do not depend on the machine it runs on (paths under user.home stay in
+ * SmartJavaCopier). The native image initialises this class at build time, so the lists and compiled
+ * patterns are stored in the image instead of being rebuilt on every start.
+ */
+final class CopierSettings {
+
+    // 3. Java project indicators
+    static final List<String> JAVA_PROJECT_INDICATORS = Arrays.asList(
+        "pom.xml",          // Maven
+        "build.gradle",     // Gradle
+        "build.xml",        // Ant
+        ".project",         // Eclipse
+        ".classpath",       // Eclipse
+        "src/main/java",    // Standard source structure
+        "src"               // Simple source structure
+    );
+    
+    // 4. Files to copy in addition to Java files
+    static final List<String> ADDITIONAL_FILES_TO_COPY = Arrays.asList(
+        "pom.xml",
+        "build.gradle",
+        "build.xml",
+        "application.yaml",
+        "application.yml",
+        "application.properties",
+        "logback.xml",
+        "log4j.properties",
+        "log4j2.xml"
+    );
+    
+    // 6. Directories to exclude from scanning (to avoid permission issues)
+    static final List<String> EXCLUDED_DIRECTORIES = Arrays.asList(
+        "AppData", "Application Data", "Local Settings", "Windows", "Program Files",
+        "Program Files (x86)", "ProgramData", "System Volume Information", "$Recycle.Bin",
+        "System32", "SysWOW64", "Jira", "Anaconda3", "node_modules"  // Added more common directories
+    );
+
+    // Module declarations in pom.xml, settings.gradle and settings.gradle.kts (e.g. include 'a' / include("a"))
+    static final Pattern MAVEN_MODULE = Pattern.compile("<module>(.*?)</module>");
+    static final Pattern GRADLE_INCLUDE = Pattern.compile("include\\s+['\"]([^'\"]+)['\"]");
+    static final Pattern GRADLE_KTS_INCLUDE = Pattern.compile("include\\s*\\(?\\s*[\"']([^\"']+)[\"']");
+
+    private CopierSettings() {
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.copier;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of completed copies, kept inside the target directory while a copy runs.
+ *
+ * Each line records one finished (source, destination name) pair, in the order the copies finished.
+ * Lines are buffered and written in batches on a background thread: the copied files of a batch and
+ * the target directory are forced to disk first, then the journal lines are appended and forced, so a
+ * journaled file is never missing after a crash.
+ * A fresh journal starts with the names already present in the target directory. An interrupted run
+ * can reopen the journal, skip everything already recorded and get the same conflict renames as before,
+ * because names are claimed in the same order on every run.
+ *
+ * Copies finish on the I/O scheduler's threads, so the methods are synchronized.
+ */
+final class CopyJournal implements Closeable {
+
+    static final String FILE_NAME = ".smartcopier-journal";
+
+    // Flush after this many entries or this much time, whichever comes first
+    private static final int FLUSH_BATCH_SIZE = 64;
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+    private static final char COPIED = 'C';
+    private static final char RENAMED = 'R';
+    private static final char EXISTING = 'E';
+
+    // Windows needs a writable handle to flush a file and cannot open directories at all. Elsewhere a read-only
+    // handle is enough, which matters because copies keep the source's mode and may be read-only.
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private final Path destDir;
+    private final Path journalFile;
+    private final Map<String, Boolean> completed = new HashMap<>();   // source -> renamed due to conflict
+    private final Set<String> takenNames = new HashSet<>();
+    private final List<Path> pendingFiles = new ArrayList<>();
+    private final StringBuilder pendingLines = new StringBuilder();
+    private final int replayedCount;
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "copier-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private FileChannel channel;
+    private boolean flushing;
+    private long lastFlush = System.currentTimeMillis();
+
+    private CopyJournal(Path destDir, boolean resume) throws IOException {
+        this.destDir = destDir;
+        this.journalFile = destDir.resolve(FILE_NAME);
+
+        long validLength = 0;
+        StringBuilder header = new StringBuilder();
+        if (resume && Files.exists(journalFile)) {
+            byte[] content = Files.readAllBytes(journalFile);
+            // Only complete lines count, a torn last line from a crash is dropped
+            int end = content.length;
+            while (end > 0 && content[end - 1] != '\n') {
+                end--;
+            }
+            validLength = end;
+            for (String line : new String(content, 0, end, StandardCharsets.UTF_8).split("\n")) {
+                String[] parts = line.split("\t", 3);
+                if (parts.length != 3 || parts[0].length() != 1) {
+                    continue;
+                }
+                char type = parts[0].charAt(0);
+                if (type == EXISTING) {
+                    takenNames.add(parts[1]);
+                } else if (type == COPIED || type == RENAMED) {
+                    completed.put(parts[2], type == RENAMED);
+                    takenNames.add(parts[1]);
+                }
+            }
+        } else {
+            // Fresh run: anything already in the target directory keeps its name, also after a resume
+            try (Stream<Path> stream = Files.list(destDir)) {
+                stream.map(path -> path.getFileName().toString())
+                      .filter(name -> !name.equals(FILE_NAME))
+                      .forEach(takenNames::add);
+            }
+            for (String name : takenNames) {
+                header.append(EXISTING).append('\t').append(name).append('\t').append('\n');
+            }
+        }
+        this.replayedCount = completed.size();
+
+        channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(validLength);
+        channel.position(validLength);
+        // Makes the journal's own directory entry durable together with the header
+        if (!write(channel, Collections.emptyList(), header.toString())) {
+            disable();
+        }
+    }
+
+    /**
+     * Opens the journal of a target directory. With {@code resume} the existing entries are replayed,
+     * otherwise any old journal is discarded and the directory contents seed the taken names.
+     */
+    static CopyJournal open(Path destDir, boolean resume) throws IOException {
+        return new CopyJournal(destDir, resume);
+    }
+
+    static boolean exists(Path destDir) {
+        return Files.isRegularFile(destDir.resolve(FILE_NAME));
+    }
+
+    int replayedCount() {
+        return replayedCount;
+    }
+
+    synchronized boolean isCompleted(Path source) {
+        return completed.containsKey(key(source));
+    }
+
+    synchronized boolean wasRenamed(Path source) {
+        return Boolean.TRUE.equals(completed.get(key(source)));
+    }
+
+    synchronized boolean isNameTaken(String fileName) {
+        return takenNames.contains(fileName);
+    }
+
+    /**
+     * Reserves a destination name before its copy has finished, so later conflict checks see it.
+     */
+    synchronized void claim(String fileName) {
+        takenNames.add(fileName);
+    }
+
+    /**
+     * Gives back a name claimed for a copy that failed.
+     */
+    synchronized void release(String fileName) {
+        takenNames.remove(fileName);
+    }
+
+    /**
+     * Records a finished copy. The batch is written by a background thread so copies never wait for fsync.
+     * Journal write failures only cost the ability to resume, so they are reported and the copy carries on
+     * without a journal.
+     */
+    synchronized void record(Path source, String destName, boolean renamed) {
+        String sourceKey = key(source);
+        completed.put(sourceKey, renamed);
+        takenNames.add(destName);
+        if (channel == null) {
+            return;
+        }
+
+        pendingFiles.add(destDir.resolve(destName));
+        pendingLines.append(renamed ? RENAMED : COPIED).append('\t')
+                    .append(destName).append('\t')
+                    .append(sourceKey).append('\n');
+        // While a batch is being written the next one keeps growing
+        if (!flushing && (pendingFiles.size() >= FLUSH_BATCH_SIZE
+                || System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL_MILLIS)) {
+            List<Path> files = new ArrayList<>(pendingFiles);
+            String lines = pendingLines.toString();
+            FileChannel target = channel;
+            pendingFiles.clear();
+            pendingLines.setLength(0);
+            lastFlush = System.currentTimeMillis();
+            flushing = true;
+            flusher.execute(() -> finishFlush(write(target, files, lines)));
+        }
+    }
+
+    /**
+     * Called after a successful copy: the journal is no longer needed and is removed.
+     */
+    synchronized void complete() throws IOException {
+        close();
+        Files.deleteIfExists(journalFile);
+    }
+
+    @Override
+    public synchronized void close() {
+        boolean interrupted = false;
+        while (flushing) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        flusher.shutdown();
+        if (channel == null) {
+            return;
+        }
+
+        if (!pendingFiles.isEmpty() && !write(channel, pendingFiles, pendingLines.toString())) {
+            disable();
+            return;
+        }
+        pendingFiles.clear();
+        pendingLines.setLength(0);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("[Warning] Failed to close copy journal: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    private synchronized void finishFlush(boolean written) {
+        flushing = false;
+        if (!written) {
+            disable();
+        }
+        notifyAll();
+    }
+
+    private void disable() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // already failing
+        }
+        channel = null;
+        pendingFiles.clear();
+        pendingLines.setLength(0);
+    }
+
+    private boolean write(FileChannel target, List<Path> files, String lines) {
+        try {
+            // Copied data and the new directory entries must be durable before the journal claims they are
+            for (Path file : files) {
+                try (FileChannel fileChannel = FileChannel.open(file, WINDOWS ? StandardOpenOption.WRITE : StandardOpenOption.READ)) {
+                    fileChannel.force(true);
+                }
+            }
+            if (!WINDOWS) {
+                try (FileChannel directory = FileChannel.open(destDir, StandardOpenOption.READ)) {
+                    directory.force(true);
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            target.force(false);
+            return true;
+        } catch (IOException e) {
+            System.err.println("[Warning] Copy journal write failed, an interrupted copy cannot be resumed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static String key(Path source) {
+        return source.toAbsolutePath().normalize().toString();
+    }
+}
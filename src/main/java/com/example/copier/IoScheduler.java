@@ -0,0 +1,254 @@
+package com.example.copier;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs scan and copy operations in parallel, with a separate concurrency limit per file store.
+ *
+ * Each store starts at a moderate limit and is tuned with AIMD while it works: the limit grows by one
+ * while throughput keeps up and it is actually being used, and is cut back when operation latency
+ * climbs well above the best latency seen so far. This keeps an SSD busy without thrashing a spinning
+ * disk or an NFS mount. Stores listed in the overrides get a fixed limit instead.
+ * Scanning and copying do very different work per operation, so each store has a separate lane per
+ * {@link Kind}; the latency history of one never judges the other.
+ *
+ * An operation can touch several stores (a copy reads one and writes another); it only starts when every
+ * lane it uses has room, and its latency counts towards all of them. All lane state is guarded by the
+ * scheduler's lock.
+ */
+final class IoScheduler {
+
+    private static final int INITIAL_LIMIT = 4;
+    private static final int MIN_LIMIT = 1;
+    private static final int MAX_LIMIT = 32;
+
+    // Tuning happens once per window of completed operations
+    private static final int WINDOW_SIZE = 32;
+    // Latency above this multiple of the best window means the store is saturated
+    private static final double LATENCY_TOLERANCE = 2.0;
+    // The best latency drifts up a little each window, so one lucky early window cannot pin the limit down
+    private static final double BASELINE_DRIFT = 1.1;
+    private static final double DECREASE_FACTOR = 0.75;
+    // Throughput may dip this much and still count as keeping up
+    private static final double THROUGHPUT_TOLERANCE = 0.95;
+
+    private final Map<String, Integer> overrides;
+    private final Map<FileStore, Map<Kind, Lane>> lanes = new HashMap<>();
+    // Waiting operations, one FIFO queue per combination of lanes
+    private final Map<List<Lane>, Deque<Runnable>> queues = new LinkedHashMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "copier-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private int pending;
+
+    /**
+     * Kind of operation a lane runs.
+     */
+    enum Kind {
+        SCAN, COPY;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * @param overrides fixed concurrency limits keyed by file store name (e.g. "/dev/sda1") or exact type
+     *                  (e.g. "nfs", "nfs4")
+     */
+    IoScheduler(Map<String, Integer> overrides) {
+        this.overrides = overrides;
+    }
+
+    /**
+     * Returns the lane for {@code kind} operations on the file store holding {@code path}. A path that
+     * does not exist yet is resolved through its nearest existing parent.
+     */
+    synchronized Lane lane(Path path, Kind kind) {
+        Path existing = path.toAbsolutePath();
+        while (existing != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+
+        FileStore store = null;
+        try {
+            if (existing != null) {
+                store = Files.getFileStore(existing);
+            }
+        } catch (IOException e) {
+            System.err.println("[Warning] Cannot determine file store of " + path + ", running its I/O serially: " + e.getMessage());
+        }
+        if (store == null) {
+            return new Lane("unknown (" + kind + ")", MIN_LIMIT, false);
+        }
+
+        Map<Kind, Lane> storeLanes = lanes.computeIfAbsent(store, s -> new EnumMap<>(Kind.class));
+        Lane lane = storeLanes.get(kind);
+        if (lane == null) {
+            String laneName = store.name() + " (" + kind + ")";
+            Integer override = overrides.containsKey(store.name()) ? overrides.get(store.name()) : overrides.get(store.type());
+            if (override != null) {
+                lane = new Lane(laneName, Math.max(MIN_LIMIT, override), false);
+                System.out.println("[Info] I/O concurrency for " + laneName + " on " + store.type() + ": fixed at " + lane.limit + " (configured)");
+            } else {
+                lane = new Lane(laneName, INITIAL_LIMIT, true);
+                System.out.println("[Info] I/O concurrency for " + laneName + " on " + store.type() + ": adaptive, starting at " + lane.limit);
+            }
+            storeLanes.put(kind, lane);
+        }
+        return lane;
+    }
+
+    /**
+     * Blocks until every submitted operation, including the ones submitted by running operations, has finished.
+     */
+    synchronized void awaitIdle() {
+        boolean interrupted = false;
+        while (pending > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues an operation that uses all of the given lanes. Failures are reported and never stop the other operations.
+     */
+    synchronized void submit(Runnable operation, Lane... lanesUsed) {
+        List<Lane> key = new ArrayList<>(new LinkedHashSet<>(Arrays.asList(lanesUsed)));
+        queues.computeIfAbsent(key, k -> new ArrayDeque<>()).add(operation);
+        pending++;
+        dispatch();
+    }
+
+    // Called with the scheduler lock held
+    private void dispatch() {
+        for (Map.Entry<List<Lane>, Deque<Runnable>> entry : queues.entrySet()) {
+            List<Lane> lanesUsed = entry.getKey();
+            Deque<Runnable> queue = entry.getValue();
+            while (!queue.isEmpty() && lanesUsed.stream().allMatch(Lane::hasRoom)) {
+                Runnable operation = queue.poll();
+                lanesUsed.forEach(Lane::started);
+                executor.execute(() -> run(operation, lanesUsed));
+            }
+        }
+    }
+
+    private void run(Runnable operation, List<Lane> lanesUsed) {
+        long start = System.nanoTime();
+        try {
+            operation.run();
+        } catch (RuntimeException e) {
+            System.err.println("  [Error] I/O operation failed: " + e.getMessage());
+        } finally {
+            long latency = System.nanoTime() - start;
+            synchronized (this) {
+                for (Lane lane : lanesUsed) {
+                    lane.finished(latency);
+                }
+                dispatch();
+                if (--pending == 0) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Concurrency limit of one kind of operation on one file store and the state used to tune it.
+     */
+    final class Lane {
+
+        private final String storeName;
+        private final boolean adaptive;
+        private int limit;
+        private int running;
+
+        // Current tuning window
+        private int windowCount;
+        private long windowLatencyNanos;
+        private long windowStart = System.nanoTime();
+        private boolean windowSaturated;
+
+        // History used to judge the next window
+        private double bestLatencyNanos = Double.MAX_VALUE;
+        private double lastThroughput;
+
+        private Lane(String storeName, int limit, boolean adaptive) {
+            this.storeName = storeName;
+            this.limit = limit;
+            this.adaptive = adaptive;
+        }
+
+        int limit() {
+            synchronized (IoScheduler.this) {
+                return limit;
+            }
+        }
+
+        // The methods below are called with the scheduler lock held
+        private boolean hasRoom() {
+            return running < limit;
+        }
+
+        private void started() {
+            running++;
+            if (running >= limit) {
+                windowSaturated = true;
+            }
+        }
+
+        private void finished(long latencyNanos) {
+            running--;
+            if (adaptive) {
+                recordLatency(latencyNanos);
+            }
+        }
+
+        private void recordLatency(long latencyNanos) {
+            windowCount++;
+            windowLatencyNanos += latencyNanos;
+            if (windowCount < WINDOW_SIZE) {
+                return;
+            }
+
+            long now = System.nanoTime();
+            double averageLatency = (double) windowLatencyNanos / windowCount;
+            double throughput = windowCount * 1_000_000_000.0 / Math.max(1, now - windowStart);
+
+            if (averageLatency > bestLatencyNanos * LATENCY_TOLERANCE) {
+                // Multiplicative decrease: the store is queueing our requests
+                limit = Math.max(MIN_LIMIT, (int) (limit * DECREASE_FACTOR));
+            } else if (windowSaturated && throughput >= lastThroughput * THROUGHPUT_TOLERANCE) {
+                // Additive increase: the limit was the bottleneck and more parallelism still pays off
+                limit = Math.min(MAX_LIMIT, limit + 1);
+            }
+            bestLatencyNanos = Math.min(bestLatencyNanos * BASELINE_DRIFT, averageLatency);
+            lastThroughput = throughput;
+
+            windowCount = 0;
+            windowLatencyNanos = 0;
+            windowStart = now;
+            windowSaturated = running >= limit;
+        }
+
+        @Override
+        public String toString() {
+            return storeName;
+        }
+    }
+}
@@ -3,8 +3,8 @@ package com.example.copier;
 import java.io.IOException;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -17,41 +17,27 @@ public class SmartJavaCopier {
     // 2. Target root directory for copying code
     private static final Path DOC_ROOT = Paths.get(System.getProperty("user.home"), "Documents", "CODE");
     
-    // 3. Java project indicators
-    private static final List<String> JAVA_PROJECT_INDICATORS = Arrays.asList(
-        "pom.xml",          // Maven
-        "build.gradle",     // Gradle
-        "build.xml",        // Ant
-        ".project",         // Eclipse
-        ".classpath",       // Eclipse
-        "src/main/java",    // Standard source structure
-        "src"               // Simple source structure
-    );
-    
-    // 4. Files to copy in addition to Java files
-    private static final List<String> ADDITIONAL_FILES_TO_COPY = Arrays.asList(
-        "pom.xml",
-        "build.gradle",
-        "build.xml",
-        "application.yaml",
-        "application.yml",
-        "application.properties",
-        "logback.xml",
-        "log4j.properties",
-        "log4j2.xml"
-    );
+    // 3, 4 and 6 (project indicators, extra files to copy, excluded directories) are in CopierSettings,
+    //    which the native image initialises at build time
     
     // 5. Maximum depth for recursive directory scanning (to avoid performance issues)
     private static final int MAX_SCAN_DEPTH = 5;
     
-    // 6. Directories to exclude from scanning (to avoid permission issues)
-    private static final List<String> EXCLUDED_DIRECTORIES = Arrays.asList(
-        "AppData", "Application Data", "Local Settings", "Windows", "Program Files",
-        "Program Files (x86)", "ProgramData", "System Volume Information", "$Recycle.Bin",
-        "System32", "SysWOW64", "Jira", "Anaconda3", "node_modules"  // Added more common directories
-    );
+    // 7. Fixed I/O concurrency per file store, keyed by store name or type (all other stores are tuned automatically)
+    //    e.g. Map.of("/dev/sda1", 1, "nfs", 16, "nfs4", 16) - types match exactly, Linux reports NFSv4 mounts as "nfs4"
+    private static final Map<String, Integer> STORE_CONCURRENCY_OVERRIDES = Map.of();
     // ==========================================================
 
+    private static final IoScheduler IO_SCHEDULER = new IoScheduler(STORE_CONCURRENCY_OVERRIDES);
+
+    // One reader for every prompt: a Scanner buffers ahead, so a second one would lose answers typed or piped in advance
+    private static final Scanner INPUT = new Scanner(System.in);
+
+    // Copies per destination file that have been submitted and not finished yet, guarded by itself
+    private static final Map<Path, InFlightCopy> COPIES_IN_FLIGHT = new HashMap<>();
+    // Copies that failed in the current run, guarded by COPIES_IN_FLIGHT
+    private static int failedCopies;
+
     public static void main(String[] args) {
         printHeader("Java Source Code Copier (Interactive Mode)");
 
@@ -89,16 +75,21 @@ public class SmartJavaCopier {
     }
 
     private static List<Path> findJavaProjectDirectories(Path root) {
-        List<Path> javaProjects = new ArrayList<>();
+        Collection<Path> found = new ConcurrentLinkedQueue<>();
         try {
-            findJavaProjectsRecursive(root, 0, javaProjects);
+            IoScheduler.Lane lane = IO_SCHEDULER.lane(root, IoScheduler.Kind.SCAN);
+            IO_SCHEDULER.submit(() -> findJavaProjectsRecursive(root, 0, found, lane), lane);
+            IO_SCHEDULER.awaitIdle();
         } catch (Exception e) {
             System.err.println("[Warning] Error during directory scanning: " + e.getMessage());
         }
+        // Directories are scanned in parallel, sort for a stable project list
+        List<Path> javaProjects = new ArrayList<>(found);
+        Collections.sort(javaProjects);
         return javaProjects;
     }
 
-    private static void findJavaProjectsRecursive(Path directory, int depth, List<Path> javaProjects) {
+    private static void findJavaProjectsRecursive(Path directory, int depth, Collection<Path> javaProjects, IoScheduler.Lane lane) {
         if (depth > MAX_SCAN_DEPTH) {
             return;
         }
@@ -115,10 +106,10 @@ public class SmartJavaCopier {
                 javaProjects.add(directory);
             }
 
-            // Recursively scan subdirectories
+            // Recursively scan subdirectories, each one as its own scheduled operation
             try (Stream<Path> stream = Files.list(directory)) {
                 stream.filter(Files::isDirectory)
-                      .forEach(subDir -> findJavaProjectsRecursive(subDir, depth + 1, javaProjects));
+                      .forEach(subDir -> IO_SCHEDULER.submit(() -> findJavaProjectsRecursive(subDir, depth + 1, javaProjects, lane), lane));
             }
         } catch (AccessDeniedException e) {
             System.err.println("[Warning] Access denied to directory: " + directory);
@@ -129,7 +120,7 @@ public class SmartJavaCopier {
 
     private static boolean isExcludedDirectory(String dirName) {
         // Check against excluded list with case-insensitive comparison
-        for (String excluded : EXCLUDED_DIRECTORIES) {
+        for (String excluded : CopierSettings.EXCLUDED_DIRECTORIES) {
             if (excluded.equalsIgnoreCase(dirName)) {
                 return true;
             }
@@ -148,7 +139,7 @@ public class SmartJavaCopier {
         }
 
         // Check for common Java project indicators
-        for (String indicator : JAVA_PROJECT_INDICATORS) {
+        for (String indicator : CopierSettings.JAVA_PROJECT_INDICATORS) {
             try {
                 Path indicatorPath = directory.resolve(indicator);
                 if (Files.exists(indicatorPath)) {
@@ -200,10 +191,9 @@ public class SmartJavaCopier {
     }
 
     private static int getUserChoice(int maxChoice) {
-        Scanner scanner = new Scanner(System.in);
         while (true) {
             System.out.print("\nPlease enter the number of the project you want to copy: ");
-            String input = scanner.nextLine();
+            String input = INPUT.nextLine();
             try {
                 int choice = Integer.parseInt(input);
                 if (choice >= 1 && choice <= maxChoice) {
@@ -294,8 +284,7 @@ public class SmartJavaCopier {
             try {
                 String content = new String(Files.readAllBytes(pomPath));
                 // Simple extraction: look for <module> tags
-                Pattern pattern = Pattern.compile("<module>(.*?)</module>");
-                Matcher matcher = pattern.matcher(content);
+                Matcher matcher = CopierSettings.MAVEN_MODULE.matcher(content);
                 while (matcher.find()) {
                     String moduleName = matcher.group(1).trim();
                     Path modulePath = projectRoot.resolve(moduleName);
@@ -314,8 +303,7 @@ public class SmartJavaCopier {
             try {
                 String content = new String(Files.readAllBytes(settingsGradlePath));
                 // Extract included modules, e.g., include 'service1', 'service2'
-                Pattern pattern = Pattern.compile("include\\s+['\"]([^'\"]+)['\"]");
-                Matcher matcher = pattern.matcher(content);
+                Matcher matcher = CopierSettings.GRADLE_INCLUDE.matcher(content);
                 while (matcher.find()) {
                     String moduleName = matcher.group(1).trim();
                     Path modulePath = projectRoot.resolve(moduleName);
@@ -333,8 +321,7 @@ public class SmartJavaCopier {
             try {
                 String content = new String(Files.readAllBytes(settingsGradleKtsPath));
                 // For Kotlin DSL, include("service1") or include("service1", "service2")
-                Pattern pattern = Pattern.compile("include\\s*\\(?\\s*[\"']([^\"']+)[\"']");
-                Matcher matcher = pattern.matcher(content);
+                Matcher matcher = CopierSettings.GRADLE_KTS_INCLUDE.matcher(content);
                 while (matcher.find()) {
                     String moduleName = matcher.group(1).trim();
                     Path modulePath = projectRoot.resolve(moduleName);
@@ -373,17 +360,24 @@ public class SmartJavaCopier {
         // 使用数组包装destDir，使其可以在lambda中使用
         final Path[] finalDestDir = {destDir};
         final String[] finalProjectName = {projectName};
+        boolean resume = false;
 
-        // Check if target directory already exists
-        if (Files.exists(finalDestDir[0])) {
+        // Check if target directory already exists, again after every rename
+        while (!resume && Files.exists(finalDestDir[0])) {
+            boolean canResume = CopyJournal.exists(finalDestDir[0]);
             System.out.println("Target directory already exists: " + finalDestDir[0]);
+            if (canResume) {
+                System.out.println("[Info] An unfinished copy was found in this directory.");
+            }
             System.out.println("Please choose an action:");
             System.out.println("  1. Overwrite - Delete existing directory and copy");
             System.out.println("  2. Skip - Do not copy");
             System.out.println("  3. Rename - Specify a new name");
+            if (canResume) {
+                System.out.println("  4. Resume - Continue the unfinished copy");
+            }
 
-            Scanner scanner = new Scanner(System.in);
-            String input = scanner.nextLine();
+            String input = INPUT.nextLine();
             int choice;
             try {
                 choice = Integer.parseInt(input);
@@ -406,7 +400,7 @@ public class SmartJavaCopier {
                     return;
                 case 3: // Rename
                     System.out.print("Please enter a new project name: ");
-                    String newName = scanner.nextLine().trim();
+                    String newName = INPUT.nextLine().trim();
                     if (newName.isEmpty()) {
                         System.out.println("[Warning] Invalid name, using default rename.");
                         newName = projectName + "_copy";
@@ -415,20 +409,45 @@ public class SmartJavaCopier {
                     finalProjectName[0] = newName;
                     System.out.println("[Info] New target directory: " + finalDestDir[0]);
                     break;
+                case 4: // Resume
+                    if (canResume) {
+                        resume = true;
+                        System.out.println("[Info] Resuming copy into: " + finalDestDir[0]);
+                        break;
+                    }
+                    System.out.println("[Warning] Invalid choice, defaulting to skip.");
+                    return;
                 default:
                     System.out.println("[Warning] Invalid choice, defaulting to skip.");
                     return;
             }
         }
 
+        CopyJournal journal = null;
         try {
             if (!Files.exists(finalDestDir[0])) {
                 System.out.println("[Operation] Creating target directory: " + finalDestDir[0]);
                 Files.createDirectories(finalDestDir[0]);
             }
 
+            // Completed copies are journaled so an interrupted run can be resumed
+            final CopyJournal copyJournal = CopyJournal.open(finalDestDir[0], resume);
+            journal = copyJournal;
+            // Every copy reads the project's store and writes the target's store, so it has to fit within both limits
+            IoScheduler.Lane sourceLane = IO_SCHEDULER.lane(projectRoot, IoScheduler.Kind.COPY);
+            IoScheduler.Lane destLane = IO_SCHEDULER.lane(finalDestDir[0], IoScheduler.Kind.COPY);
+            final IoScheduler.Lane[] copyLanes = sourceLane == destLane
+                    ? new IoScheduler.Lane[] {destLane}
+                    : new IoScheduler.Lane[] {sourceLane, destLane};
+            if (resume) {
+                System.out.println("[Info] " + copyJournal.replayedCount() + " files were already copied and will be skipped.");
+            }
+
             final int[] fileCount = {0};
             final int[] conflictCount = {0};
+            synchronized (COPIES_IN_FLIGHT) {
+                failedCopies = 0;
+            }
 
             System.out.println("[Operation] Collecting and copying .java files and configuration files...");
             
@@ -451,26 +470,26 @@ public class SmartJavaCopier {
                             walk.filter(path -> path.toString().endsWith(".java") && Files.isRegularFile(path))
                                 .forEach(sourceFile -> {
                                     fileCount[0]++;
+                                    if (skipJournaled(copyJournal, sourceFile, conflictCount)) {
+                                        return;
+                                    }
                                     String fileName = sourceFile.getFileName().toString();
-                                    Path destFile = finalDestDir[0].resolve(fileName);
 
-                                    if (Files.exists(destFile)) {
+                                    if (copyJournal.isNameTaken(fileName)) {
                                         conflictCount[0]++;
                                         int counter = 1;
                                         String baseName = fileName.substring(0, fileName.lastIndexOf('.'));
                                         String extension = fileName.substring(fileName.lastIndexOf('.'));
-                                        Path newDestFile;
                                         String newName;
                                         do {
                                             newName = String.format("%s_%d%s", baseName, counter++, extension);
-                                            newDestFile = finalDestDir[0].resolve(newName);
-                                        } while (Files.exists(newDestFile));
+                                        } while (copyJournal.isNameTaken(newName));
                                         
                                         System.out.println("  [Rename] " + fileName + " -> " + newName);
-                                        copyFile(sourceFile, newDestFile);
+                                        copyFile(sourceFile, finalDestDir[0], newName, true, copyJournal, copyLanes);
                                     } else {
                                         System.out.println("  [Copy] " + fileName);
-                                        copyFile(sourceFile, destFile);
+                                        copyFile(sourceFile, finalDestDir[0], fileName, false, copyJournal, copyLanes);
                                     }
                                 });
                         } catch (IOException e) {
@@ -478,17 +497,19 @@ public class SmartJavaCopier {
                         }
                         
                         // Copy configuration files from submodule with service name suffix
-                        for (String fileName : ADDITIONAL_FILES_TO_COPY) {
+                        for (String fileName : CopierSettings.ADDITIONAL_FILES_TO_COPY) {
                             Path sourceFile = submodule.resolve(fileName);
                             if (Files.exists(sourceFile) && Files.isRegularFile(sourceFile)) {
                                 fileCount[0]++;
+                                if (skipJournaled(copyJournal, sourceFile, conflictCount)) {
+                                    continue;
+                                }
                                 // Use service name as suffix for configuration files
                                 String newFileName = addServiceSuffix(fileName, submoduleName);
-                                Path destFile = finalDestDir[0].resolve(newFileName);
                                 
                                 // For microservices, we always use service name suffix, so no need to check for conflicts
                                 System.out.println("  [Copy Config] " + fileName + " -> " + newFileName);
-                                copyFile(sourceFile, destFile);
+                                copyFile(sourceFile, finalDestDir[0], newFileName, false, copyJournal, copyLanes);
                             }
                         }
                         
@@ -503,17 +524,19 @@ public class SmartJavaCopier {
                                 try (Stream<Path> walk = Files.walk(resourcesDir)) {
                                     walk.filter(path -> {
                                         String fileName = path.getFileName().toString();
-                                        return ADDITIONAL_FILES_TO_COPY.contains(fileName) && Files.isRegularFile(path);
+                                        return CopierSettings.ADDITIONAL_FILES_TO_COPY.contains(fileName) && Files.isRegularFile(path);
                                     }).forEach(sourceFile -> {
                                         fileCount[0]++;
+                                        if (skipJournaled(copyJournal, sourceFile, conflictCount)) {
+                                            return;
+                                        }
                                         String fileName = sourceFile.getFileName().toString();
                                         // Use service name as suffix for configuration files
                                         String newFileName = addServiceSuffix(fileName, submoduleName);
-                                        Path destFile = finalDestDir[0].resolve(newFileName);
                                         
                                         // For microservices, we always use service name suffix, so no need to check for conflicts
                                         System.out.println("  [Copy Resource] " + fileName + " -> " + newFileName);
-                                        copyFile(sourceFile, destFile);
+                                        copyFile(sourceFile, finalDestDir[0], newFileName, false, copyJournal, copyLanes);
                                     });
                                 } catch (IOException e) {
                                     System.err.println("[Warning] Error accessing submodule resources directory: " + resourcesDir);
@@ -530,26 +553,26 @@ public class SmartJavaCopier {
                     walk.filter(path -> path.toString().endsWith(".java") && Files.isRegularFile(path))
                         .forEach(sourceFile -> {
                             fileCount[0]++;
+                            if (skipJournaled(copyJournal, sourceFile, conflictCount)) {
+                                return;
+                            }
                             String fileName = sourceFile.getFileName().toString();
-                            Path destFile = finalDestDir[0].resolve(fileName);
 
-                            if (Files.exists(destFile)) {
+                            if (copyJournal.isNameTaken(fileName)) {
                                 conflictCount[0]++;
                                 int counter = 1;
                                 String baseName = fileName.substring(0, fileName.lastIndexOf('.'));
                                 String extension = fileName.substring(fileName.lastIndexOf('.'));
-                                Path newDestFile;
                                 String newName;
                                 do {
                                     newName = String.format("%s_%d%s", baseName, counter++, extension);
-                                    newDestFile = finalDestDir[0].resolve(newName);
-                                } while (Files.exists(newDestFile));
+                                } while (copyJournal.isNameTaken(newName));
                                 
                                 System.out.println("  [Rename] " + fileName + " -> " + newName);
-                                copyFile(sourceFile, newDestFile);
+                                copyFile(sourceFile, finalDestDir[0], newName, true, copyJournal, copyLanes);
                             } else {
                                 System.out.println("  [Copy] " + fileName);
-                                copyFile(sourceFile, destFile);
+                                copyFile(sourceFile, finalDestDir[0], fileName, false, copyJournal, copyLanes);
                             }
                         });
                 } catch (IOException e) {
@@ -559,37 +582,36 @@ public class SmartJavaCopier {
             
             // Copy additional configuration files from project root (for both multi-module and single module)
             // For multi-module projects, we also copy the parent project's configuration files
-            for (String fileName : ADDITIONAL_FILES_TO_COPY) {
+            for (String fileName : CopierSettings.ADDITIONAL_FILES_TO_COPY) {
                 Path sourceFile = projectRoot.resolve(fileName);
                 if (Files.exists(sourceFile) && Files.isRegularFile(sourceFile)) {
                     fileCount[0]++;
-                    Path destFile = finalDestDir[0].resolve(fileName);
+                    if (skipJournaled(copyJournal, sourceFile, conflictCount)) {
+                        continue;
+                    }
                     
-                    if (Files.exists(destFile)) {
+                    if (copyJournal.isNameTaken(fileName)) {
                         conflictCount[0]++;
                         // For multi-module parent projects, use project name as suffix
                         if (isMultiModule) {
                             String newFileName = addServiceSuffix(fileName, projectName);
-                            Path newDestFile = finalDestDir[0].resolve(newFileName);
                             System.out.println("  [Rename Config] " + fileName + " -> " + newFileName);
-                            copyFile(sourceFile, newDestFile);
+                            copyFile(sourceFile, finalDestDir[0], newFileName, true, copyJournal, copyLanes);
                         } else {
                             int counter = 1;
                             String baseName = fileName.substring(0, fileName.lastIndexOf('.'));
                             String extension = fileName.substring(fileName.lastIndexOf('.'));
-                            Path newDestFile;
                             String newName;
                             do {
                                 newName = String.format("%s_%d%s", baseName, counter++, extension);
-                                newDestFile = finalDestDir[0].resolve(newName);
-                            } while (Files.exists(newDestFile));
+                            } while (copyJournal.isNameTaken(newName));
                             
                             System.out.println("  [Rename Config] " + fileName + " -> " + newName);
-                            copyFile(sourceFile, newDestFile);
+                            copyFile(sourceFile, finalDestDir[0], newName, true, copyJournal, copyLanes);
                         }
                     } else {
                         System.out.println("  [Copy Config] " + fileName);
-                        copyFile(sourceFile, destFile);
+                        copyFile(sourceFile, finalDestDir[0], fileName, false, copyJournal, copyLanes);
                     }
                 }
             }
@@ -606,37 +628,36 @@ public class SmartJavaCopier {
                     try (Stream<Path> walk = Files.walk(resourcesDir)) {
                         walk.filter(path -> {
                             String fileName = path.getFileName().toString();
-                            return ADDITIONAL_FILES_TO_COPY.contains(fileName) && Files.isRegularFile(path);
+                            return CopierSettings.ADDITIONAL_FILES_TO_COPY.contains(fileName) && Files.isRegularFile(path);
                         }).forEach(sourceFile -> {
                             fileCount[0]++;
+                            if (skipJournaled(copyJournal, sourceFile, conflictCount)) {
+                                return;
+                            }
                             String fileName = sourceFile.getFileName().toString();
-                            Path destFile = finalDestDir[0].resolve(fileName);
                             
-                            if (Files.exists(destFile)) {
+                            if (copyJournal.isNameTaken(fileName)) {
                                 conflictCount[0]++;
                                 // For multi-module parent projects, use project name as suffix
                                 if (isMultiModule) {
                                     String newFileName = addServiceSuffix(fileName, projectName);
-                                    Path newDestFile = finalDestDir[0].resolve(newFileName);
                                     System.out.println("  [Rename Resource] " + fileName + " -> " + newFileName);
-                                    copyFile(sourceFile, newDestFile);
+                                    copyFile(sourceFile, finalDestDir[0], newFileName, true, copyJournal, copyLanes);
                                 } else {
                                     int counter = 1;
                                     String baseName = fileName.substring(0, fileName.lastIndexOf('.'));
                                     String extension = fileName.substring(fileName.lastIndexOf('.'));
-                                    Path newDestFile;
                                     String newName;
                                     do {
                                         newName = String.format("%s_%d%s", baseName, counter++, extension);
-                                        newDestFile = finalDestDir[0].resolve(newName);
-                                    } while (Files.exists(newDestFile));
+                                    } while (copyJournal.isNameTaken(newName));
                                     
                                     System.out.println("  [Rename Resource] " + fileName + " -> " + newName);
-                                    copyFile(sourceFile, newDestFile);
+                                    copyFile(sourceFile, finalDestDir[0], newName, true, copyJournal, copyLanes);
                                 }
                             } else {
                                 System.out.println("  [Copy Resource] " + fileName);
-                                copyFile(sourceFile, destFile);
+                                copyFile(sourceFile, finalDestDir[0], fileName, false, copyJournal, copyLanes);
                             }
                         });
                     } catch (IOException e) {
@@ -645,11 +666,44 @@ public class SmartJavaCopier {
                 }
             }
 
+            // Wait for the scheduled copies. The journal is only removed when every file made it,
+            // otherwise a resumed run retries just the failed ones
+            IO_SCHEDULER.awaitIdle();
+            int failed;
+            synchronized (COPIES_IN_FLIGHT) {
+                failed = failedCopies;
+            }
+            if (failed == 0) {
+                copyJournal.complete();
+            } else {
+                copyJournal.close();
+                System.err.println("[Warning] " + failed + " files could not be copied. Run the copier again and choose \"Resume\" to retry them.");
+            }
+            for (IoScheduler.Lane lane : copyLanes) {
+                System.out.println("[Info] I/O concurrency for " + lane + " ended at " + lane.limit());
+            }
+
             printSummary(fileCount[0], conflictCount[0], finalDestDir[0]);
 
         } catch (IOException e) {
             System.err.println("\n[Critical Error] File operation failed: " + e.getMessage());
+        } finally {
+            IO_SCHEDULER.awaitIdle();
+            if (journal != null) {
+                journal.close();
+            }
+        }
+    }
+
+    // Skip a file an interrupted run already copied, keeping the summary counts consistent
+    private static boolean skipJournaled(CopyJournal journal, Path sourceFile, int[] conflictCount) {
+        if (!journal.isCompleted(sourceFile)) {
+            return false;
         }
+        if (journal.wasRenamed(sourceFile)) {
+            conflictCount[0]++;
+        }
+        return true;
     }
 
     private static void deleteDirectory(Path path) throws IOException {
@@ -666,11 +720,66 @@ public class SmartJavaCopier {
         }
     }
 
-    private static void copyFile(Path source, Path dest) {
+    // Names are claimed in order on this thread so conflict renames stay deterministic, the copy itself runs on the scheduler.
+    // Copies to the same destination (e.g. main and test resources of one submodule) run one after another in submit
+    // order, so the last one still wins as in a serial copy.
+    // A name nobody managed to write is given back, but files named while its copy was still running keep their suffix,
+    // and a resumed run retrying the failed file may then choose different names than this run did.
+    private static void copyFile(Path source, Path destDir, String destName, boolean renamed, CopyJournal journal, IoScheduler.Lane[] lanes) {
+        Path dest = destDir.resolve(destName);
+        Runnable copy = () -> {
+            boolean copied = copyFile(source, dest);
+            if (copied) {
+                journal.record(source, destName, renamed);
+            }
+            Runnable next;
+            synchronized (COPIES_IN_FLIGHT) {
+                InFlightCopy inFlight = COPIES_IN_FLIGHT.get(dest);
+                inFlight.written |= copied;
+                if (!copied) {
+                    failedCopies++;
+                }
+                next = inFlight.waiting.poll();
+                if (next == null) {
+                    COPIES_IN_FLIGHT.remove(dest);
+                    if (!inFlight.written) {
+                        journal.release(destName);
+                    }
+                }
+            }
+            if (next != null) {
+                IO_SCHEDULER.submit(next, lanes);
+            }
+        };
+
+        // Claimed under the same lock the last copy releases under, so a release never drops this claim
+        synchronized (COPIES_IN_FLIGHT) {
+            journal.claim(destName);
+            InFlightCopy inFlight = COPIES_IN_FLIGHT.get(dest);
+            if (inFlight != null) {
+                inFlight.waiting.add(copy);
+                return;
+            }
+            COPIES_IN_FLIGHT.put(dest, new InFlightCopy());
+        }
+        IO_SCHEDULER.submit(copy, lanes);
+    }
+
+    private static final class InFlightCopy {
+        // Later copies to the same destination, in submit order
+        final Deque<Runnable> waiting = new ArrayDeque<>();
+        // Whether any copy to the destination has succeeded
+        boolean written;
+    }
+
+    private static boolean copyFile(Path source, Path dest) {
         try {
             Files.copy(source, dest, StandardCopyOption.REPLACE_EXISTING);
+            return true;
         } catch (IOException e) {
-            System.err.println("  [Error] Failed to copy file: " + source + " -> " + dest);
+            // Copies finish out of order, so name the destination as printed in the [Copy]/[Rename] line
+            System.err.println("  [Error] Failed to copy " + dest.getFileName() + ": " + source + " -> " + dest + " (" + e.getMessage() + ")");
+            return false;
         }
     }
 
@@ -696,7 +805,7 @@ public class SmartJavaCopier {
 
     private static void waitForEnterAndExit() {
         System.out.print("Press Enter to exit...");
-        new Scanner(System.in).nextLine();
+        INPUT.nextLine();
         System.exit(0);
     }
 